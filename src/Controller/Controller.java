@@ -44,6 +44,9 @@ public class Controller {
             if(xmlParser.checkIfErrorOcccurred()) {
                 gui.showError(xmlParser);
             }
+            if(xmlParser.getArchiveError() != null) {
+                gui.showArchiveError(xmlParser);
+            }
             gui.createMenuBar(xmlParser);
             gui.createTablePanel(xmlParser);
             gui.updateGUIEveryHour(BACKGROUND_WAIT_SECONDS);
@@ -0,0 +1,331 @@
+package Model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An append-only archive of scheduled episodes kept on disk, one directory per day.
+ * Each day has a file of fixed-width records and a file of strings the records point to.
+ * Both files are memory-mapped when queried, so the archive is not loaded into the heap.
+ *
+ * Record layout, 36 bytes: start (long, epoch seconds), end (long, epoch seconds),
+ * channel name hash (int), then offsets (int) into the string file for channel name,
+ * title, description and image url. An offset of -1 means the string is missing.
+ * Each string is stored as its length in bytes (int) followed by UTF-8 bytes.
+ */
+public class EpisodeArchive {
+    private static final int RECORD_SIZE = 36;
+    private static final String RECORDS_FILE = "records.dat";
+    private static final String STRINGS_FILE = "strings.dat";
+
+    //Number of mapped files kept between queries, the least recently used mapping is dropped first
+    private static final int MAX_MAPPED_FILES = 16;
+
+    private final Path directory;
+    //Mapped files in access order, replaced when the file has grown since it was mapped
+    private final LinkedHashMap<Path, MappedByteBuffer> mapped = new LinkedHashMap<>(16, 0.75f, true);
+    //Keys of the episodes already archived for the days written to in the last append
+    private final Map<LocalDate, HashSet<String>> archivedKeys = new HashMap<>();
+
+    /**
+     * Opens the archive in the given directory, creating it if needed
+     *
+     * @param directory the directory of the archive
+     * @throws IOException if the directory could not be created
+     */
+    public EpisodeArchive(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Appends the episodes that have ended and are not already in the archive. Episodes still
+     * airing or not yet aired are left out, since their schedule may still change. An episode
+     * is identified by its channel and start time.
+     *
+     * @param episodes the episodes to archive
+     * @param now the current time, only episodes ending before it are archived
+     * @return the number of episodes appended
+     * @throws IOException if the archive could not be written
+     */
+    public synchronized int append(List<ScheduledEpisode> episodes, Instant now) throws IOException {
+        Map<LocalDate, List<ScheduledEpisode>> byDay = new HashMap<>();
+        for (ScheduledEpisode episode : episodes) {
+            if (episode.getStartDate() != null && episode.getEndDate() != null
+                    && toEpochSecond(episode.getEndDate(), episode.getEndTime()) <= now.getEpochSecond()) {
+                byDay.computeIfAbsent(LocalDate.parse(episode.getStartDate()), d -> new ArrayList<>()).add(episode);
+            }
+        }
+        //Only keeps the keys of the days still being written to
+        archivedKeys.keySet().retainAll(byDay.keySet());
+        int appended = 0;
+        for (Map.Entry<LocalDate, List<ScheduledEpisode>> entry : byDay.entrySet()) {
+            appended += appendDay(entry.getKey(), entry.getValue());
+        }
+        return appended;
+    }
+
+    /**
+     * Appends the episodes of one day. Strings are written before the records pointing
+     * to them, and a partly written record at the end of the file is overwritten.
+     *
+     * @param day the day the episodes start
+     * @param episodes the episodes starting that day
+     * @return the number of episodes appended
+     * @throws IOException if the archive could not be written
+     */
+    private int appendDay(LocalDate day, List<ScheduledEpisode> episodes) throws IOException {
+        Path dayDirectory = directory.resolve(day.toString());
+        Files.createDirectories(dayDirectory);
+        HashSet<String> keys = keysFor(day);
+        //Added to the archived keys only once both files are written, so a failed write is retried
+        HashSet<String> newKeys = new HashSet<>();
+
+        try (FileChannel records = FileChannel.open(dayDirectory.resolve(RECORDS_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel strings = FileChannel.open(dayDirectory.resolve(STRINGS_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long recordEnd = records.size() - records.size() % RECORD_SIZE;
+            long stringEnd = strings.size();
+            ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+            ByteBuffer recordBytes = ByteBuffer.allocate(episodes.size() * RECORD_SIZE);
+            Map<String, Integer> channelOffsets = new HashMap<>();
+
+            for (ScheduledEpisode episode : episodes) {
+                long start = toEpochSecond(episode.getStartDate(), episode.getStartTime());
+                long end = toEpochSecond(episode.getEndDate(), episode.getEndTime());
+                int channelHash = hash(episode.getName());
+                String key = key(start, episode.getName());
+                if (keys.contains(key) || !newKeys.add(key)) {
+                    continue;
+                }
+                Integer channelOffset = channelOffsets.get(episode.getName());
+                if (channelOffset == null) {
+                    channelOffset = writeString(stringBytes, stringEnd, episode.getName());
+                    channelOffsets.put(episode.getName(), channelOffset);
+                }
+                recordBytes.putLong(start);
+                recordBytes.putLong(end);
+                recordBytes.putInt(channelHash);
+                recordBytes.putInt(channelOffset);
+                recordBytes.putInt(writeString(stringBytes, stringEnd, episode.getTitle()));
+                recordBytes.putInt(writeString(stringBytes, stringEnd, episode.getDescritption()));
+                recordBytes.putInt(writeString(stringBytes, stringEnd, episode.getImageurl()));
+            }
+
+            recordBytes.flip();
+            if (!recordBytes.hasRemaining()) {
+                return 0;
+            }
+            ByteBuffer stringBuffer = ByteBuffer.wrap(stringBytes.toByteArray());
+            while (stringBuffer.hasRemaining()) {
+                stringEnd += strings.write(stringBuffer, stringEnd);
+            }
+            int appended = recordBytes.remaining() / RECORD_SIZE;
+            while (recordBytes.hasRemaining()) {
+                recordEnd += records.write(recordBytes, recordEnd);
+            }
+            records.truncate(recordEnd);
+            keys.addAll(newKeys);
+            return appended;
+        }
+    }
+
+    /**
+     * Finds the archived episodes of a channel, or all channels, airing in a time range.
+     *
+     * @param channelName the name of the channel or null for all channels
+     * @param from the start of the time range
+     * @param to the end of the time range
+     * @return an arraylist of the ScheduledEpisode objects airing in the range
+     * @throws IOException if the archive could not be read
+     */
+    public synchronized ArrayList<ScheduledEpisode> query(String channelName, Instant from, Instant to)
+            throws IOException {
+        ArrayList<ScheduledEpisode> result = new ArrayList<>();
+        long fromSecond = from.getEpochSecond();
+        long toSecond = to.getEpochSecond();
+        int channelHash = channelName != null ? hash(channelName) : 0;
+
+        //Starts a day early since an episode starting the day before may still be airing
+        LocalDate last = LocalDate.ofInstant(to, ZoneId.systemDefault());
+        for (LocalDate day = LocalDate.ofInstant(from, ZoneId.systemDefault()).minusDays(1);
+             !day.isAfter(last); day = day.plusDays(1)) {
+            Path dayDirectory = directory.resolve(day.toString());
+            ByteBuffer records = map(dayDirectory.resolve(RECORDS_FILE));
+            if (records == null) {
+                continue;
+            }
+            ByteBuffer strings = map(dayDirectory.resolve(STRINGS_FILE));
+            int count = records.capacity() / RECORD_SIZE;
+            for (int i = 0; i < count; i++) {
+                int position = i * RECORD_SIZE;
+                long start = records.getLong(position);
+                long end = records.getLong(position + 8);
+                if (end <= fromSecond || start >= toSecond) {
+                    continue;
+                }
+                if (channelName != null && (records.getInt(position + 16) != channelHash
+                        || !channelName.equals(readString(strings, records.getInt(position + 20))))) {
+                    continue;
+                }
+                ScheduledEpisode episode = new ScheduledEpisode();
+                episode.setStartTime(toLocalTime(start));
+                episode.setEndTime(toLocalTime(end));
+                episode.setName(readString(strings, records.getInt(position + 20)));
+                episode.setTitle(readString(strings, records.getInt(position + 24)));
+                episode.setDescritption(readString(strings, records.getInt(position + 28)));
+                episode.setImageurl(readString(strings, records.getInt(position + 32)));
+                result.add(episode);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the keys of the episodes archived for a day, reading them from the archive
+     * the first time the day is written to.
+     *
+     * @param day the day
+     * @return a set of the keys
+     * @throws IOException if the archive could not be read
+     */
+    private HashSet<String> keysFor(LocalDate day) throws IOException {
+        HashSet<String> keys = archivedKeys.get(day);
+        if (keys == null) {
+            keys = new HashSet<>();
+            Path dayDirectory = directory.resolve(day.toString());
+            ByteBuffer records = map(dayDirectory.resolve(RECORDS_FILE));
+            if (records != null) {
+                ByteBuffer strings = map(dayDirectory.resolve(STRINGS_FILE));
+                for (int position = 0; position + RECORD_SIZE <= records.capacity(); position += RECORD_SIZE) {
+                    keys.add(key(records.getLong(position), readString(strings, records.getInt(position + 20))));
+                }
+            }
+            archivedKeys.put(day, keys);
+        }
+        return keys;
+    }
+
+    /**
+     * Maps the whole records or strings file of a day, reusing the last mapping if the file has not grown.
+     * Only whole records are included in the mapping of a records file. At most MAX_MAPPED_FILES
+     * mappings are kept, older ones are released when no longer referenced.
+     *
+     * @param file the file to map
+     * @return a read-only buffer of the file or null if it does not exist
+     * @throws IOException if the file could not be mapped
+     */
+    private ByteBuffer map(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        long size = Files.size(file);
+        if (file.getFileName().toString().equals(RECORDS_FILE)) {
+            size -= size % RECORD_SIZE;
+        }
+        MappedByteBuffer buffer = mapped.get(file);
+        if (buffer == null || buffer.capacity() != size) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            mapped.put(file, buffer);
+            if (mapped.size() > MAX_MAPPED_FILES) {
+                Iterator<Path> eldest = mapped.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Adds a string to the bytes to be written to the string file
+     *
+     * @param out the bytes to be written
+     * @param base the current size of the string file
+     * @param value the string or null
+     * @return the offset of the string in the string file or -1 if null
+     */
+    private int writeString(ByteArrayOutputStream out, long base, String value) {
+        if (value == null) {
+            return -1;
+        }
+        int offset = (int) (base + out.size());
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(bytes.length >>> 24);
+        out.write(bytes.length >>> 16);
+        out.write(bytes.length >>> 8);
+        out.write(bytes.length);
+        out.write(bytes, 0, bytes.length);
+        return offset;
+    }
+
+    /**
+     * Reads a string from a mapped string file
+     *
+     * @param strings the mapped string file
+     * @param offset the offset of the string or -1
+     * @return the string or null if the offset is -1
+     */
+    private String readString(ByteBuffer strings, int offset) {
+        if (offset < 0 || strings == null) {
+            return null;
+        }
+        int length = strings.getInt(offset);
+        byte[] bytes = new byte[length];
+        strings.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates the key identifying an episode, its start minute and the name of its channel.
+     * The whole name is used so channels with the same name hash are kept apart.
+     *
+     * @param start the start time in epoch seconds
+     * @param channelName the name of the channel or null
+     * @return the key
+     */
+    private static String key(long start, String channelName) {
+        return start / 60 + " " + channelName;
+    }
+
+    private static int hash(String channelName) {
+        return channelName != null ? channelName.hashCode() : 0;
+    }
+
+    private static long toEpochSecond(String date, String time) {
+        return LocalDateTime.parse(date + "T" + time.substring(0, 5))
+                .atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    /**
+     * Formats a time the same way as the parsed episodes before it is set on an episode
+     *
+     * @param epochSecond the time in seconds since epoch
+     * @return the time as a String
+     */
+    private static String toLocalTime(long epochSecond) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault())
+                .toString().substring(0, 17);
+    }
+}
@@ -0,0 +1,234 @@
+package Model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+
+/**
+ * A streaming reader for JSON documents. The document is read one token at a time
+ * so no tree of the whole document is built.
+ */
+public class JsonReader {
+    /**
+     * The kinds of tokens in a JSON document
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    //True for each object and false for each array the reader is inside
+    private final ArrayDeque<Boolean> scopes = new ArrayDeque<>();
+    private boolean expectName;
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Creates a reader for a UTF-8 encoded document
+     *
+     * @param in the stream containing the document
+     */
+    public JsonReader(InputStream in) {
+        this.in = new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the next token
+     *
+     * @return the kind of token read
+     * @throws IOException if the document could not be read or is malformed
+     */
+    public Token next() throws IOException {
+        int c = readNonWhitespace();
+        switch (c) {
+            case -1:
+                return Token.END_DOCUMENT;
+            case '{':
+                scopes.push(true);
+                expectName = true;
+                return Token.BEGIN_OBJECT;
+            case '[':
+                scopes.push(false);
+                expectName = false;
+                return Token.BEGIN_ARRAY;
+            case '}':
+            case ']':
+                if (scopes.isEmpty()) {
+                    throw new IOException("Malformed JSON: unexpected '" + (char) c + "'");
+                }
+                scopes.pop();
+                expectName = false;
+                return c == '}' ? Token.END_OBJECT : Token.END_ARRAY;
+            case ',':
+                expectName = !scopes.isEmpty() && scopes.peek();
+                return next();
+            case ':':
+                expectName = false;
+                return next();
+            case '"':
+                readString();
+                return expectName ? Token.NAME : Token.STRING;
+            case 't':
+            case 'f':
+            case 'n':
+                readLiteral(c);
+                return c == 'n' ? Token.NULL : Token.BOOLEAN;
+            default:
+                readNumber(c);
+                return Token.NUMBER;
+        }
+    }
+
+    /**
+     * Gets the text of the last name, string, number or boolean read
+     *
+     * @return the text of the token
+     */
+    public String getText() {
+        return text.toString();
+    }
+
+    /**
+     * Reads the next value and returns it as text. Objects and arrays are skipped.
+     *
+     * @return the text of the value or null if it is not a string, number or boolean
+     * @throws IOException if the document could not be read or is malformed
+     */
+    public String nextValue() throws IOException {
+        Token token = next();
+        if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+            skipRest();
+            return null;
+        }
+        return token == Token.NULL ? null : getText();
+    }
+
+    /**
+     * Skips the next value, including everything inside it if it is an object or array
+     *
+     * @throws IOException if the document could not be read or is malformed
+     */
+    public void skipValue() throws IOException {
+        Token token = next();
+        if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+            skipRest();
+        }
+    }
+
+    /**
+     * Skips the rest of the object or array the reader is inside
+     *
+     * @throws IOException if the document could not be read or is malformed
+     */
+    public void skipRest() throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            Token token = next();
+            if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+                depth++;
+            } else if (token == Token.END_OBJECT || token == Token.END_ARRAY) {
+                depth--;
+            } else if (token == Token.END_DOCUMENT) {
+                throw new IOException("Malformed JSON: unexpected end of document");
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            position++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int readNonWhitespace() throws IOException {
+        int c = read();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            c = read();
+        }
+        return c;
+    }
+
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new IOException("Malformed JSON: unterminated string");
+            }
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case 'b': text.append('\b'); break;
+                    case 'f': text.append('\f'); break;
+                    case 'n': text.append('\n'); break;
+                    case 'r': text.append('\r'); break;
+                    case 't': text.append('\t'); break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit < 0) {
+                                throw new IOException("Malformed JSON: bad unicode escape");
+                            }
+                            code = code * 16 + digit;
+                        }
+                        text.append((char) code);
+                        break;
+                    case -1:
+                        throw new IOException("Malformed JSON: unterminated string");
+                    default:
+                        text.append((char) c);
+                }
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private void readLiteral(int first) throws IOException {
+        String expected = first == 't' ? "true" : first == 'f' ? "false" : "null";
+        text.setLength(0);
+        text.append((char) first);
+        for (int i = 1; i < expected.length(); i++) {
+            text.append((char) read());
+        }
+        if (!expected.contentEquals(text)) {
+            throw new IOException("Malformed JSON: unexpected literal " + text);
+        }
+    }
+
+    private void readNumber(int first) throws IOException {
+        if (first != '-' && (first < '0' || first > '9')) {
+            throw new IOException("Malformed JSON: unexpected '" + (char) first + "'");
+        }
+        text.setLength(0);
+        text.append((char) first);
+        int c = peek();
+        while ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+            text.append((char) read());
+            c = peek();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package Model;
+
+import org.xml.sax.SAXException;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class lets concurrent callers asking for the same url address share one in-flight
+ * fetch and its parsed result. Results are not kept after the fetch is done.
+ *
+ * @param <T> the type of the parsed result
+ */
+public class RequestCoalescer<T> {
+    private final ConcurrentHashMap<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong savedRequests = new AtomicLong();
+
+    /**
+     * A fetch and parse of a document
+     *
+     * @param <T> the type of the parsed result
+     */
+    public interface Request<T> {
+        T fetch() throws IOException, SAXException;
+    }
+
+    public RequestCoalescer() {
+    }
+
+    /**
+     * Runs the request, or waits for the result of an identical request already in flight.
+     *
+     * @param key the url address identifying the request
+     * @param request the fetch to run if no identical request is in flight
+     * @return the parsed result
+     * @throws IOException if the document could not be read
+     * @throws SAXException if the document could not be parsed
+     */
+    public T fetch(String key, Request<T> request) throws IOException, SAXException {
+        requests.incrementAndGet();
+        CompletableFuture<T> own = new CompletableFuture<>();
+        CompletableFuture<T> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            savedRequests.incrementAndGet();
+            return waitFor(existing);
+        }
+
+        try {
+            T result = request.fetch();
+            own.complete(result);
+            return result;
+        } catch (Throwable e) {
+            //Also completes on errors such as OutOfMemoryError, so waiting callers are not blocked forever
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Waits for the result of another caller's request
+     *
+     * @param future the request in flight
+     * @return the parsed result
+     * @throws IOException if the document could not be read
+     * @throws SAXException if the document could not be parsed
+     */
+    private T waitFor(CompletableFuture<T> future) throws IOException, SAXException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof SAXException) {
+                throw (SAXException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of requests made
+     *
+     * @return the number of requests
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Gets the number of requests that shared the result of a request already in flight
+     *
+     * @return the number of saved requests
+     */
+    public long getSavedRequests() {
+        return savedRequests.get();
+    }
+}
@@ -1,5 +1,8 @@
 package Model;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * This class sets and gets all the variables included in a given channel's program schedule.
  */
@@ -12,6 +15,15 @@ public class ScheduledEpisode {
     private String startTime;
     private String endTime;
     private String endDate;
+    //Loads the description and image url when first read if they were left out when parsed
+    private volatile DetailsLoader detailsLoader;
+
+    /**
+     * Loads the description and image url of an episode that were left out when it was parsed
+     */
+    public interface DetailsLoader {
+        void load(ScheduledEpisode episode) throws IOException;
+    }
 
     public ScheduledEpisode(){
     }
@@ -29,8 +41,10 @@ public class ScheduledEpisode {
      * Gets an image connected to an url address
      *
      * @return a String representing an url address
+     * @throws UncheckedIOException if it was left out when parsed and could not be loaded
      */
     public String getImageurl() {
+        loadDetails();
         return imageurl;
     }
 
@@ -65,8 +79,10 @@ public class ScheduledEpisode {
      * Gets the description of the episode
      *
      * @return a String representing the description
+     * @throws UncheckedIOException if it was left out when parsed and could not be loaded
      */
     public String getDescritption() {
+        loadDetails();
         return descritption;
     }
 
@@ -115,6 +131,38 @@ public class ScheduledEpisode {
         this.descritption = descritption;
     }
 
+    /**
+     * Sets the loader used to get the description and image url when one of them is first read
+     *
+     * @param detailsLoader the DetailsLoader or null if the episode already has its details
+     */
+    public void setDetailsLoader(DetailsLoader detailsLoader) {
+        this.detailsLoader = detailsLoader;
+    }
+
+    /**
+     * Runs the details loader until it succeeds once, also if the episode is read from
+     * several threads. The loader is kept after a failure so the next read tries again.
+     *
+     * @throws UncheckedIOException if the details could not be loaded
+     */
+    private void loadDetails() {
+        if (detailsLoader == null) {
+            return;
+        }
+        synchronized (this) {
+            DetailsLoader loader = detailsLoader;
+            if (loader != null) {
+                try {
+                    loader.load(this);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                detailsLoader = null;
+            }
+        }
+    }
+
     /**
      * Sets the start time of the episode. Deletes unnecessary characters in string.
      *
@@ -5,14 +5,37 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /**
  * A class that parses documents containing information regarding the Swedish Radio's channels' program schedules.
@@ -22,6 +45,29 @@ public class XMLParser {
     private final ArrayList<ScheduledEpisode> listOfEpisodes = new ArrayList();
     private String error;
     private boolean errorOccur = false;
+    private Clock clock = Clock.systemDefaultZone();
+    //Episodes starting further than this from now are not saved
+    private Duration timeWindow = Duration.ofHours(12);
+    //0 fetches every document in one request, otherwise the number of items per page
+    private int pageSize = Integer.getInteger("radioinfo.pageSize", 0);
+    //Shared by all XMLParsers so concurrent refreshes do not fetch the same document twice
+    private static final RequestCoalescer<List<Channel>> CHANNEL_REQUESTS = new RequestCoalescer<>();
+    private static final RequestCoalescer<List<ScheduledEpisode>> EPISODE_REQUESTS = new RequestCoalescer<>();
+    //Downloads the next page while the current one is parsed, shared by all XMLParsers
+    private static final ExecutorService PAGE_FETCHER =
+            Executors.newFixedThreadPool(2, XMLParser::createPageFetcherThread);
+    private static final Pattern NEXT_PAGE = Pattern.compile("<nextpage>([^<]*)</nextpage>");
+    private static final Pattern NEXT_PAGE_JSON = Pattern.compile("\"nextpage\"\\s*:\\s*\"([^\"]*)\"");
+    private static final Pattern JSON_DATE = Pattern.compile("/Date\\((-?\\d+)[^)]*\\)/");
+    //Reads descriptions and image urls when first asked for if the property radioinfo.lazyDetails is true
+    private boolean lazyDetails = Boolean.getBoolean("radioinfo.lazyDetails");
+    //Keeps the parsed episodes on disk after each refresh if the property radioinfo.archive is set
+    private EpisodeArchive archive = defaultArchive();
+    private static EpisodeArchive sharedArchive;
+    private static String sharedArchiveError;
+    private String archiveError = sharedArchiveError;
+    //Reads the JSON representation instead of XML if the property radioinfo.format is json
+    private boolean jsonFormat = "json".equalsIgnoreCase(System.getProperty("radioinfo.format"));
 
     public XMLParser() {
     }
@@ -40,18 +86,15 @@ public class XMLParser {
             System.out.println("An exception was caught, cause:" + e.getCause());
         }
 
-        Document doc;
         try {
             String xmlURL = "http://api.sr.se/v2/channels/";
             if (!channelID.equals("")) {
-                doc = DB.parse((new URL(xmlURL + channelID +
-                        "/?&pagination=false&size=1000").openStream()));
+                listOfChannels.addAll(fetchDocuments(CHANNEL_REQUESTS, DB, xmlURL + channelID + "/?", null,
+                        this::getElementsforChannel, this::readJsonChannels));
             }else{
-                doc = DB.parse((new URL(xmlURL +
-                        "?&pagination=false&size=1000").openStream()));
+                listOfChannels.addAll(fetchDocuments(CHANNEL_REQUESTS, DB, xmlURL + "?", null,
+                        this::getElementsforChannel, this::readJsonChannels));
             }
-            doc.getDocumentElement().normalize();
-            getElementsforChannel(doc);
         } catch (SAXException e) {
             errorOccurred();
             error += "An exception was caught, cause: " + e.getCause();
@@ -66,8 +109,10 @@ public class XMLParser {
      * and saves the information to an arraylist.
      *
      * @param doc the document to loop through
+     * @return an arraylist of the Channel objects in the document
      */
-    private void getElementsforChannel(Document doc) {
+    private ArrayList<Channel> getElementsforChannel(Document doc) {
+        ArrayList<Channel> channels = new ArrayList<>();
         NodeList channelsList = doc.getElementsByTagName("channel");
         for (int i = 0; i < channelsList.getLength(); i++) {
             Node n = channelsList.item(i);
@@ -87,9 +132,10 @@ public class XMLParser {
                         }
                     }
                 }
-                listOfChannels.add(channel);
+                channels.add(channel);
             }
         }
+        return channels;
     }
 
     /**
@@ -98,6 +144,17 @@ public class XMLParser {
      * @param date the date of the episode airing added to the url
      */
     public void parseEpisodes(LocalDate date) {
+        parseEpisodes(date, 1, 1);
+    }
+
+    /**
+     * Parses the documents containing the scheduled episodes for a range of dates.
+     *
+     * @param date the date in the middle of the range
+     * @param daysBefore the number of days before the date to parse
+     * @param daysAfter the number of days after the date to parse
+     */
+    public void parseEpisodes(LocalDate date, int daysBefore, int daysAfter) {
         try {
             for (Channel c : listOfChannels) {
                 //Does not include 4868 because channel does not have a schedule url
@@ -110,15 +167,14 @@ public class XMLParser {
                         errorOccurred();
                         error += "An exception was caught, cause: " + e.getCause();
                     }
-                    Document doc;
-                    ArrayList<LocalDate> threeDates = this.getThreeDays(date);
-
-                    for (LocalDate date1 : threeDates) {
-                        doc = DB.parse((new URL(c.getScheduleURL() + "&date=" +
-                                date1.format(DateTimeFormatter.ISO_LOCAL_DATE)
-                                + "&pagination=false&size=1000").openStream()));
-                        doc.getDocumentElement().normalize();
-                        getElementSchedule(doc);
+                    ArrayList<LocalDate> dates = this.getDays(date, daysBefore, daysAfter);
+
+                    for (LocalDate date1 : dates) {
+                        String url = c.getScheduleURL() + "&date=" + date1.format(DateTimeFormatter.ISO_LOCAL_DATE);
+                        DocumentDetails details = leavesOutDetails() ? new DocumentDetails() : null;
+                        listOfEpisodes.addAll(fetchDocuments(EPISODE_REQUESTS, DB, url, details,
+                                doc -> getElementSchedule(doc, details),
+                                reader -> readJsonSchedule(reader, details)));
                     }
                 }
             }
@@ -132,6 +188,188 @@ public class XMLParser {
             errorOccurred();
             error += "An exception was caught, cause: " + e.getCause();
         }
+        archiveEpisodes();
+    }
+
+    /**
+     * Appends the episodes that have ended to the archive, if there is one. A failure is
+     * kept as the archive error, separate from the errors of the refresh.
+     */
+    private void archiveEpisodes() {
+        if (archive == null) {
+            return;
+        }
+        try {
+            archive.append(listOfEpisodes, clock.instant());
+            archiveError = null;
+        } catch (IOException e) {
+            archiveError = "Could not write to the archive: " + e;
+        }
+    }
+
+    /**
+     * Fetches and parses the document at the given url address. Shares the result with
+     * any other XMLParser already fetching the same url address.
+     *
+     * @param requests the requests in flight for this kind of document
+     * @param DB the DocumentBuilder used to parse XML documents
+     * @param url the url address without pagination parameters
+     * @param details keeps the raw pages for reading left out details later, or null
+     * @param handler the method getting the information in a parsed XML document
+     * @param jsonHandler the method getting the information in a JSON document
+     * @return an unmodifiable list of the parsed objects
+     * @throws IOException if a document could not be read
+     * @throws SAXException if a document could not be parsed
+     */
+    private <T> List<T> fetchDocuments(RequestCoalescer<List<T>> requests, DocumentBuilder DB, String url,
+                                       DocumentDetails details, Function<Document, List<T>> handler,
+                                       JsonHandler<T> jsonHandler)
+            throws IOException, SAXException {
+        String formatURL = jsonFormat ? url + "&format=json" : url;
+        //The clock is part of the key since the episodes are filtered against its time
+        return requests.fetch(formatURL + "&size=" + pageSize + "&window=" + timeWindow
+                + "&lazy=" + leavesOutDetails() + "&clock=" + clock, () -> {
+            ArrayList<T> result = new ArrayList<>();
+            parseDocuments(formatURL, in -> {
+                InputStream page = details != null ? details.keep(in) : in;
+                if (jsonFormat) {
+                    result.addAll(jsonHandler.read(new JsonReader(page)));
+                } else {
+                    Document doc = DB.parse(page);
+                    doc.getDocumentElement().normalize();
+                    result.addAll(handler.apply(doc));
+                }
+            });
+            return Collections.unmodifiableList(result);
+        });
+    }
+
+    /**
+     * Gets the information in a JSON document
+     *
+     * @param <T> the type of the parsed objects
+     */
+    private interface JsonHandler<T> {
+        List<T> read(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Reads one document or page
+     */
+    private interface DocumentHandler {
+        void read(InputStream in) throws IOException, SAXException;
+    }
+
+    /**
+     * Parses the document at the given url address and passes it to the handler. If a page size
+     * is set the document is fetched page by page, following the next page links. The next page
+     * is downloaded in the background while the current page is parsed.
+     *
+     * @param url the url address without pagination parameters
+     * @param handler the method reading the content of a document
+     * @throws IOException if a document could not be read
+     * @throws SAXException if a document could not be parsed
+     */
+    private void parseDocuments(String url, DocumentHandler handler) throws IOException, SAXException {
+        if (pageSize <= 0) {
+            try (InputStream in = openStream(url + "&pagination=false&size=1000")) {
+                handler.read(in);
+            }
+            return;
+        }
+
+        Future<byte[]> page = fetchPage(url + "&pagination=true&size=" + pageSize);
+        try {
+            while (page != null) {
+                byte[] content = waitForPage(page);
+                String nextPage = findNextPage(content);
+                page = nextPage != null ? fetchPage(nextPage) : null;
+                handler.read(new ByteArrayInputStream(content));
+            }
+        } finally {
+            //Stops the download of the next page if a page could not be read
+            if (page != null) {
+                page.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Starts downloading a page in the background
+     *
+     * @param url the url address of the page
+     * @return a Future with the content of the page
+     */
+    private Future<byte[]> fetchPage(String url) {
+        return PAGE_FETCHER.submit(() -> {
+            try (InputStream in = openStream(url)) {
+                return in.readAllBytes();
+            }
+        });
+    }
+
+    /**
+     * Waits for a page to be downloaded
+     *
+     * @param page the page being downloaded
+     * @return the content of the page
+     * @throws IOException if the page could not be downloaded
+     */
+    private byte[] waitForPage(Future<byte[]> page) throws IOException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a page");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Creates the daemon thread downloading pages in the background
+     *
+     * @param task the task to run
+     * @return the Thread
+     */
+    private static Thread createPageFetcherThread(Runnable task) {
+        Thread thread = new Thread(task, "page-fetcher");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Finds the link to the next page without parsing the whole document, so the
+     * download of the next page can start before the current page is parsed.
+     *
+     * @param content the content of the current page
+     * @return the url address of the next page or null if it is the last page
+     */
+    private String findNextPage(byte[] content) {
+        Matcher matcher = (jsonFormat ? NEXT_PAGE_JSON : NEXT_PAGE)
+                .matcher(new String(content, StandardCharsets.ISO_8859_1));
+        if (matcher.find()) {
+            return matcher.group(1).trim().replace("&amp;", "&").replace("\\/", "/");
+        }
+        return null;
+    }
+
+    /**
+     * Opens a stream to the document at the given url address. Can be overridden
+     * to read documents from another source, e.g. recorded fixtures.
+     *
+     * @param url the url address of the document
+     * @return an InputStream with the content of the document
+     * @throws IOException if the document could not be opened
+     */
+    protected InputStream openStream(String url) throws IOException {
+        return new URL(url).openStream();
     }
 
     /**
@@ -140,10 +378,15 @@ public class XMLParser {
      * right time range.
      *
      * @param doc the document to loop through
+     * @param details the details of the document to read descriptions and image urls from when
+     *                first asked for, or null to read them now
+     * @return an arraylist of the ScheduledEpisode objects in the document
      */
-    private void getElementSchedule(Document doc) {
+    private ArrayList<ScheduledEpisode> getElementSchedule(Document doc, DocumentDetails details) {
+        ArrayList<ScheduledEpisode> episodes = new ArrayList<>();
         NodeList scheduleList = doc.getElementsByTagName("scheduledepisode");
         boolean timecheck = false;
+        ZonedDateTime start = null;
         for (int i = 0; i < scheduleList.getLength(); i++) {
             Node nNode1 = scheduleList.item(i);
             if (nNode1.getNodeType() == Node.ELEMENT_NODE) {
@@ -165,43 +408,213 @@ public class XMLParser {
                             episode.setTitle(element.getTextContent());
                         }
 
-                        if (element.getTagName().equals("description")) {
+                        if (element.getTagName().equals("description") && details == null) {
                             episode.setDescritption(element.getTextContent());
                         }
 
                         if (element.getTagName().equals("starttimeutc")) {
-                            ZonedDateTime date = ZonedDateTime.parse(element.getTextContent());
-                            ZonedDateTime time = ZonedDateTime.ofInstant(date.toInstant(),
-                                    ZoneId.systemDefault());
-                            ZonedDateTime now = ZonedDateTime.now();
-                            episode.setStartTime(time.toString().substring(0, 17));
-                            if(time.isAfter(now.minusHours(12)) && time.isBefore(now.plusHours(12))) {
+                            start = ZonedDateTime.parse(element.getTextContent());
+                            if (setStartTime(episode, start)) {
                                 timecheck = true;
                             }
-                            else {
-                                continue;
-                            }
-
                         }
 
                         if (element.getTagName().equals("endtimeutc")) {
-                            ZonedDateTime date = ZonedDateTime.parse(element.getTextContent());
-                            ZonedDateTime time = ZonedDateTime.ofInstant(date.toInstant(),
-                                    ZoneId.systemDefault());
-                            episode.setEndTime(time.toString().substring(0, 17));
+                            setEndTime(episode, ZonedDateTime.parse(element.getTextContent()));
                         }
 
-                        if (element.getTagName().equals("imageurl")) {
+                        if (element.getTagName().equals("imageurl") && details == null) {
                             episode.setImageurl(element.getTextContent());
                         }
                     }
                 }
                 if (timecheck){
-                    listOfEpisodes.add(episode);
+                    if (details != null) {
+                        details.attach(episode, start);
+                    }
+                    episodes.add(episode);
                     timecheck = false;
                 }
             }
         }
+        return episodes;
+    }
+
+    /**
+     * Sets the start time of the episode in local time
+     *
+     * @param episode the episode to set the start time for
+     * @param date the start time
+     * @return true if the episode starts in the right time range
+     */
+    private boolean setStartTime(ScheduledEpisode episode, ZonedDateTime date) {
+        ZonedDateTime time = ZonedDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        episode.setStartTime(time.toString().substring(0, 17));
+        return time.isAfter(now.minus(timeWindow)) && time.isBefore(now.plus(timeWindow));
+    }
+
+    /**
+     * Sets the end time of the episode in local time
+     *
+     * @param episode the episode to set the end time for
+     * @param date the end time
+     */
+    private void setEndTime(ScheduledEpisode episode, ZonedDateTime date) {
+        ZonedDateTime time = ZonedDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        episode.setEndTime(time.toString().substring(0, 17));
+    }
+
+    /**
+     * Reads the channels in a JSON document one token at a time.
+     *
+     * @param reader the reader positioned at the start of the document
+     * @return an arraylist of the Channel objects in the document
+     * @throws IOException if the document could not be read or is malformed
+     */
+    private List<Channel> readJsonChannels(JsonReader reader) throws IOException {
+        ArrayList<Channel> channels = new ArrayList<>();
+        reader.next();
+        while (reader.next() == JsonReader.Token.NAME) {
+            String name = reader.getText();
+            if (name.equals("channels")) {
+                reader.next();
+                while (reader.next() == JsonReader.Token.BEGIN_OBJECT) {
+                    channels.add(readJsonChannel(reader));
+                }
+            } else if (name.equals("channel")) {
+                reader.next();
+                channels.add(readJsonChannel(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        return channels;
+    }
+
+    /**
+     * Reads one channel object in a JSON document
+     *
+     * @param reader the reader positioned inside the channel object
+     * @return the Channel object
+     * @throws IOException if the document could not be read or is malformed
+     */
+    private Channel readJsonChannel(JsonReader reader) throws IOException {
+        Channel channel = new Channel();
+        while (reader.next() == JsonReader.Token.NAME) {
+            switch (reader.getText()) {
+                case "id" -> channel.setId(reader.nextValue());
+                case "name" -> channel.setName(reader.nextValue());
+                case "scheduleurl" -> channel.setScheduleURL(reader.nextValue());
+                default -> reader.skipValue();
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * Reads the scheduled episodes in a JSON document one token at a time. Does not add
+     * episodes that are not in the right time range.
+     *
+     * @param reader the reader positioned at the start of the document
+     * @param details the details of the document to read descriptions and image urls from when
+     *                first asked for, or null to read them now
+     * @return an arraylist of the ScheduledEpisode objects in the document
+     * @throws IOException if the document could not be read or is malformed
+     */
+    private List<ScheduledEpisode> readJsonSchedule(JsonReader reader, DocumentDetails details)
+            throws IOException {
+        ArrayList<ScheduledEpisode> episodes = new ArrayList<>();
+        reader.next();
+        while (reader.next() == JsonReader.Token.NAME) {
+            if (!reader.getText().equals("schedule")) {
+                reader.skipValue();
+                continue;
+            }
+            reader.next();
+            while (reader.next() == JsonReader.Token.BEGIN_OBJECT) {
+                ScheduledEpisode episode = new ScheduledEpisode();
+                boolean timecheck = false;
+                ZonedDateTime start = null;
+                while (reader.next() == JsonReader.Token.NAME) {
+                    switch (reader.getText()) {
+                        case "title" -> episode.setTitle(reader.nextValue());
+                        case "description" -> {
+                            if (details == null) {
+                                episode.setDescritption(reader.nextValue());
+                            } else {
+                                reader.skipValue();
+                            }
+                        }
+                        case "imageurl" -> {
+                            if (details == null) {
+                                episode.setImageurl(reader.nextValue());
+                            } else {
+                                reader.skipValue();
+                            }
+                        }
+                        case "starttimeutc" -> {
+                            start = parseJsonDate(reader.nextValue());
+                            timecheck = setStartTime(episode, start);
+                        }
+                        case "endtimeutc" -> setEndTime(episode, parseJsonDate(reader.nextValue()));
+                        case "channel" -> episode.setName(readJsonName(reader));
+                        default -> reader.skipValue();
+                    }
+                }
+                if (timecheck) {
+                    if (details != null) {
+                        details.attach(episode, start);
+                    }
+                    episodes.add(episode);
+                }
+            }
+        }
+        return episodes;
+    }
+
+    /**
+     * Reads the name in an object such as the channel of an episode
+     *
+     * @param reader the reader positioned before the object
+     * @return the name or null if the object has no name
+     * @throws IOException if the document could not be read or is malformed
+     */
+    private String readJsonName(JsonReader reader) throws IOException {
+        String name = null;
+        if (reader.next() != JsonReader.Token.BEGIN_OBJECT) {
+            return null;
+        }
+        while (reader.next() == JsonReader.Token.NAME) {
+            if (reader.getText().equals("name")) {
+                name = reader.nextValue();
+            } else {
+                reader.skipValue();
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Parses a date in a JSON document, either as /Date(milliseconds)/ or ISO-8601
+     *
+     * @param value the date as a String
+     * @return the date as a ZonedDateTime
+     * @throws IOException if the date could not be parsed
+     */
+    private ZonedDateTime parseJsonDate(String value) throws IOException {
+        if (value == null) {
+            throw new IOException("Missing date in JSON document");
+        }
+        Matcher matcher = JSON_DATE.matcher(value);
+        if (matcher.matches()) {
+            return ZonedDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(matcher.group(1))), ZoneOffset.UTC);
+        }
+        try {
+            return ZonedDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IOException("Malformed date in JSON document: " + value);
+        }
     }
 
     /**
@@ -264,18 +677,317 @@ public class XMLParser {
     }
 
     /**
-     * Gets an arraylist of three dates; yesterday, today, tomorrow
+     * Gets the number of document requests made by all XMLParsers
+     *
+     * @return the number of requests
+     */
+    public static long getRequests() {
+        return CHANNEL_REQUESTS.getRequests() + EPISODE_REQUESTS.getRequests();
+    }
+
+    /**
+     * Gets the number of document requests that shared the result of an identical request in flight
+     *
+     * @return the number of saved requests
+     */
+    public static long getSavedRequests() {
+        return CHANNEL_REQUESTS.getSavedRequests() + EPISODE_REQUESTS.getSavedRequests();
+    }
+
+    /**
+     * Gets the archive in the directory given by the property radioinfo.archive,
+     * shared by all XMLParsers
+     *
+     * @return the EpisodeArchive or null if the property is not set or it could not be opened
+     */
+    private static synchronized EpisodeArchive defaultArchive() {
+        String directory = System.getProperty("radioinfo.archive");
+        if (sharedArchive == null && directory != null) {
+            try {
+                sharedArchive = new EpisodeArchive(Paths.get(directory));
+                sharedArchiveError = null;
+            } catch (IOException e) {
+                sharedArchiveError = "Could not open the archive: " + e;
+            }
+        }
+        return sharedArchive;
+    }
+
+    /**
+     * Sets the archive the parsed episodes are appended to after each refresh
+     *
+     * @param archive the EpisodeArchive or null to not archive episodes
+     */
+    public void setArchive(EpisodeArchive archive) {
+        this.archive = archive;
+        archiveError = null;
+    }
+
+    /**
+     * Gets the error from opening or writing to the archive. Archive errors do not mark
+     * the refresh as failed.
+     *
+     * @return the error message or null if the archive works or is not used
+     */
+    public String getArchiveError() {
+        return archiveError;
+    }
+
+    /**
+     * Gets the archive the parsed episodes are appended to
+     *
+     * @return the EpisodeArchive or null if episodes are not archived
+     */
+    public EpisodeArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Sets whether descriptions and image urls are left out when parsing and read from the
+     * kept raw document when first asked for. Not used while episodes are archived.
+     *
+     * @param lazyDetails true to read the fields when first asked for
+     */
+    public void setLazyDetails(boolean lazyDetails) {
+        this.lazyDetails = lazyDetails;
+    }
+
+    /**
+     * Checks whether descriptions and image urls are read when first asked for
+     *
+     * @return true if the fields are read when first asked for
+     */
+    public boolean isLazyDetails() {
+        return lazyDetails;
+    }
+
+    /**
+     * Checks whether descriptions and image urls are left out when parsing. They are
+     * always read when archiving, since the archive keeps every field.
+     *
+     * @return true if the fields are left out
+     */
+    private boolean leavesOutDetails() {
+        return lazyDetails && archive == null;
+    }
+
+    /**
+     * Keeps the raw pages of a document whose episodes were parsed without descriptions and
+     * image urls, and reads the details from them when the first episode asks for them. The
+     * pages are read once for all episodes and then released, so the network is not used
+     * again and the details match the document the episodes were parsed from.
+     */
+    private class DocumentDetails {
+        private final boolean json = jsonFormat;
+        //The raw pages of the document compressed, released once the details are read from them
+        private ArrayList<byte[]> pages = new ArrayList<>();
+        //Description and image url by start time in epoch seconds, null until the pages are read
+        private HashMap<Long, String[]> details;
+
+        /**
+         * Keeps a compressed copy of a page of the document while it is parsed. Compressed since
+         * the raw page is larger than the descriptions and image urls left out of the episodes.
+         *
+         * @param in the stream containing the page
+         * @return a stream with the same content for parsing the episodes
+         * @throws IOException if the page could not be read
+         */
+        synchronized InputStream keep(InputStream in) throws IOException {
+            byte[] page = in.readAllBytes();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(page.length / 4);
+            try (DeflaterOutputStream out = new DeflaterOutputStream(compressed)) {
+                out.write(page);
+            }
+            pages.add(compressed.toByteArray());
+            return new ByteArrayInputStream(page);
+        }
+
+        /**
+         * Lets an episode in the document get its details from here when first asked for
+         *
+         * @param episode the episode
+         * @param start the start time identifying the episode in the document
+         */
+        void attach(ScheduledEpisode episode, ZonedDateTime start) {
+            long startSecond = start.toEpochSecond();
+            episode.setDetailsLoader(e -> load(e, startSecond));
+        }
+
+        /**
+         * Sets the description and image url of an episode, reading the kept pages the first time
+         *
+         * @param episode the episode
+         * @param start the start time of the episode in epoch seconds
+         * @throws IOException if the kept pages could not be read, they are kept for another try
+         */
+        private synchronized void load(ScheduledEpisode episode, long start) throws IOException {
+            if (details == null) {
+                HashMap<Long, String[]> read = new HashMap<>();
+                try {
+                    DocumentBuilder DB = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+                    for (byte[] page : pages) {
+                        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(page))) {
+                            if (json) {
+                                readJsonDetails(new JsonReader(in), read);
+                            } else {
+                                readElementDetails(DB.parse(in), read);
+                            }
+                        }
+                    }
+                } catch (SAXException | ParserConfigurationException e) {
+                    throw new IOException("Could not read the details of the episodes", e);
+                }
+                details = read;
+                pages = null;
+            }
+            //Removed when set so only the details not asked for yet are kept
+            String[] values = details.remove(start);
+            if (values != null) {
+                episode.setDescritption(values[0]);
+                episode.setImageurl(values[1]);
+            }
+        }
+
+        /**
+         * Reads the description and image url of each episode in an XML document
+         *
+         * @param doc the document
+         * @param details the map to put the details in, by start time in epoch seconds
+         */
+        private void readElementDetails(Document doc, HashMap<Long, String[]> details) {
+            NodeList scheduleList = doc.getElementsByTagName("scheduledepisode");
+            for (int i = 0; i < scheduleList.getLength(); i++) {
+                NodeList childList = scheduleList.item(i).getChildNodes();
+                Long start = null;
+                String[] values = new String[2];
+                for (int j = 0; j < childList.getLength(); j++) {
+                    Node cn = childList.item(j);
+                    if (cn.getNodeType() == Node.ELEMENT_NODE) {
+                        switch (((Element) cn).getTagName()) {
+                            case "starttimeutc" -> start = ZonedDateTime.parse(cn.getTextContent()).toEpochSecond();
+                            case "description" -> values[0] = cn.getTextContent();
+                            case "imageurl" -> values[1] = cn.getTextContent();
+                            default -> { }
+                        }
+                    }
+                }
+                if (start != null) {
+                    details.put(start, values);
+                }
+            }
+        }
+
+        /**
+         * Reads the description and image url of each episode in a JSON document
+         *
+         * @param reader the reader positioned at the start of the document
+         * @param details the map to put the details in, by start time in epoch seconds
+         * @throws IOException if the document could not be read or is malformed
+         */
+        private void readJsonDetails(JsonReader reader, HashMap<Long, String[]> details) throws IOException {
+            reader.next();
+            while (reader.next() == JsonReader.Token.NAME) {
+                if (!reader.getText().equals("schedule")) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.next();
+                while (reader.next() == JsonReader.Token.BEGIN_OBJECT) {
+                    Long start = null;
+                    String[] values = new String[2];
+                    while (reader.next() == JsonReader.Token.NAME) {
+                        switch (reader.getText()) {
+                            case "starttimeutc" -> start = parseJsonDate(reader.nextValue()).toEpochSecond();
+                            case "description" -> values[0] = reader.nextValue();
+                            case "imageurl" -> values[1] = reader.nextValue();
+                            default -> reader.skipValue();
+                        }
+                    }
+                    if (start != null) {
+                        details.put(start, values);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets whether the JSON representation is read instead of XML
+     *
+     * @param jsonFormat true to read JSON
+     */
+    public void setJsonFormat(boolean jsonFormat) {
+        this.jsonFormat = jsonFormat;
+    }
+
+    /**
+     * Checks whether the JSON representation is read instead of XML
+     *
+     * @return true if JSON is read
+     */
+    public boolean isJsonFormat() {
+        return jsonFormat;
+    }
+
+    /**
+     * Sets the number of items fetched per page. 0 fetches every document in one request.
+     *
+     * @param pageSize the number of items per page
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Gets the number of items fetched per page
+     *
+     * @return the page size, 0 if pagination is not used
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Sets how far from now an episode may start to be saved
+     *
+     * @param timeWindow the time before and after now
+     */
+    public void setTimeWindow(Duration timeWindow) {
+        this.timeWindow = timeWindow;
+    }
+
+    /**
+     * Sets the clock used to decide which episodes are in the right time range
+     *
+     * @param clock the clock to use instead of the system clock
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the clock used to decide which episodes are in the right time range
+     *
+     * @return the Clock in use
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Gets an arraylist of the dates around a date, e.g. yesterday, today, tomorrow
      *
      * @param today the date to set as the date of today
+     * @param daysBefore the number of days before today to include
+     * @param daysAfter the number of days after today to include
      * @return an arraylist of LocalDate objects
      */
-    private ArrayList<LocalDate> getThreeDays(LocalDate today){
+    private ArrayList<LocalDate> getDays(LocalDate today, int daysBefore, int daysAfter){
         ArrayList<LocalDate> dateList = new ArrayList<>();
-        LocalDate tomorrow = today.plusDays(1);
-        LocalDate yesterday = today.minusDays(1);
-        dateList.add(yesterday);
-        dateList.add(today);
-        dateList.add(tomorrow);
+        for (LocalDate day = today.minusDays(daysBefore); !day.isAfter(today.plusDays(daysAfter));
+             day = day.plusDays(1)) {
+            dateList.add(day);
+        }
         return dateList;
     }
 }
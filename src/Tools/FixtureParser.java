@@ -0,0 +1,113 @@
+package Tools;
+
+import Model.XMLParser;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An XMLParser reading the documents from a fixture directory instead of the network.
+ * Counts the bytes read so the size of the payloads can be reported.
+ */
+class FixtureParser extends XMLParser {
+    private static final String RECORDED_AT_FILE = "recorded-at";
+    private static final Pattern DATE = Pattern.compile("&date=(\\d{4}-\\d{2}-\\d{2})");
+
+    private final Path fixtureDir;
+    private final boolean record;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final LocalDate recordedDay;
+
+    /**
+     * Creates a parser reading documents from the fixture directory.
+     *
+     * @param fixtureDir the directory containing the recorded documents
+     * @param record true if missing documents should be downloaded and saved
+     * @throws IOException if the fixture directory could not be created
+     */
+    FixtureParser(Path fixtureDir, boolean record) throws IOException {
+        this.fixtureDir = fixtureDir;
+        this.record = record;
+        Files.createDirectories(fixtureDir);
+        recordedDay = LocalDate.ofInstant(getRecordedAt(), ZoneId.systemDefault());
+    }
+
+    /**
+     * Gets the time the fixtures were recorded. Saves the current time if it is a new recording.
+     *
+     * @return the time of the recording
+     * @throws IOException if the recording time could not be read or written
+     */
+    Instant getRecordedAt() throws IOException {
+        Path recordedAt = fixtureDir.resolve(RECORDED_AT_FILE);
+        if (!Files.exists(recordedAt)) {
+            Files.writeString(recordedAt, Instant.now().toString());
+        }
+        return Instant.parse(Files.readString(recordedAt).trim());
+    }
+
+    /**
+     * Gets the number of bytes read from the fixtures
+     *
+     * @return the number of bytes
+     */
+    long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Maps an url address to a file name in the fixture directory. The date is replaced by
+     * its offset from the day of the recording, e.g. d-1, d0 and d+1.
+     *
+     * @param url the url address of the document
+     * @return the path of the recorded document
+     */
+    private Path fixtureFor(String url) {
+        Matcher matcher = DATE.matcher(url);
+        String day = "";
+        if (matcher.find()) {
+            long offset = ChronoUnit.DAYS.between(recordedDay, LocalDate.parse(matcher.group(1)));
+            day = offset > 0 ? "_d+" + offset : "_d" + offset;
+        }
+        String key = matcher.replaceAll("").replaceAll("[^A-Za-z0-9]", "_") + day;
+        return fixtureDir.resolve(key + (url.contains("format=json") ? ".json" : ".xml"));
+    }
+
+    @Override
+    protected InputStream openStream(String url) throws IOException {
+        Path fixture = fixtureFor(url);
+        if (!Files.exists(fixture) && record) {
+            try (InputStream in = super.openStream(url)) {
+                Files.copy(in, fixture);
+            }
+        }
+        return new FilterInputStream(Files.newInputStream(fixture)) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) {
+                    bytesRead.incrementAndGet();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    bytesRead.addAndGet(n);
+                }
+                return n;
+            }
+        };
+    }
+}
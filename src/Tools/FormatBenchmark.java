@@ -0,0 +1,99 @@
+package Tools;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Compares the XML and JSON ingestion paths on the same recorded data. Reports payload
+ * bytes, parse time and allocation per full refresh of all channels and schedules.
+ *
+ * Usage: FormatBenchmark fixtureDir [iterations] [--record]
+ *
+ * With --record missing documents are downloaded from the API in both formats and
+ * saved in fixtureDir, so both paths read data fetched at the same time.
+ */
+public class FormatBenchmark {
+    private static final int DEFAULT_ITERATIONS = 50;
+    private static final int WARMUP_ITERATIONS = 10;
+
+    /**
+     * The result of benchmarking one format
+     */
+    private static class Result {
+        private long bytes;
+        private long nanos;
+        private long allocated;
+        private int channels;
+        private int episodes;
+    }
+
+    /**
+     * Runs full refreshes with one format and measures them.
+     *
+     * @param parser the parser reading the recorded documents
+     * @param json true to read JSON, false to read XML
+     * @param iterations the number of measured refreshes
+     * @return the averages per refresh
+     */
+    private static Result measure(FixtureParser parser, boolean json, int iterations) {
+        parser.setJsonFormat(json);
+        Result result = new Result();
+
+        for (int i = 0; i < WARMUP_ITERATIONS + iterations; i++) {
+            long bytesBefore = parser.getBytesRead();
+            long allocBefore = Measurements.allocatedBytes();
+            long start = System.nanoTime();
+            parser.resetListOfChannels();
+            parser.resetListOfEpisodes();
+            parser.parseChannel("");
+            parser.parseEpisodes(LocalDate.now(parser.getClock()));
+            long nanos = System.nanoTime() - start;
+            if (parser.checkIfErrorOcccurred()) {
+                throw new IllegalStateException(parser.getError());
+            }
+            if (i >= WARMUP_ITERATIONS) {
+                result.nanos += nanos;
+                result.allocated += Measurements.allocatedBytes() - allocBefore;
+                result.bytes += parser.getBytesRead() - bytesBefore;
+            }
+        }
+        result.nanos /= iterations;
+        result.allocated /= iterations;
+        result.bytes /= iterations;
+        result.channels = parser.getListOfChannels().size();
+        result.episodes = parser.getListOfEpisodes().size();
+        return result;
+    }
+
+    private static void print(String format, Result result) {
+        System.out.printf("%s\t%d\t%.2f\t%d\t%d\t%d%n", format, result.bytes / 1024,
+                result.nanos / 1_000_000.0, result.allocated / 1024, result.channels, result.episodes);
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean record = Arrays.asList(args).contains("--record");
+        String[] values = Arrays.stream(args).filter(a -> !a.equals("--record")).toArray(String[]::new);
+        if (values.length < 1) {
+            System.out.println("Usage: FormatBenchmark fixtureDir [iterations] [--record]");
+            System.exit(2);
+        }
+        int iterations = values.length > 1 ? Integer.parseInt(values[1]) : DEFAULT_ITERATIONS;
+
+        FixtureParser parser = new FixtureParser(Paths.get(values[0]), record);
+        parser.setClock(Clock.fixed(parser.getRecordedAt(), ZoneId.systemDefault()));
+
+        Result xml = measure(parser, false, iterations);
+        Result json = measure(parser, true, iterations);
+
+        System.out.println("format\tpayloadKB\tparseMs\tallocKB\tchannels\tepisodes");
+        print("xml", xml);
+        print("json", json);
+        if (xml.channels != json.channels || xml.episodes != json.episodes) {
+            System.out.println("Warning: the formats did not give the same number of channels and episodes");
+        }
+    }
+}
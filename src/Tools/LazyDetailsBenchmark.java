@@ -0,0 +1,135 @@
+package Tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+
+/**
+ * Compares reading descriptions and image urls when parsing with reading them when first
+ * asked for, on recorded data. Reports parse time and allocation per full refresh, the heap
+ * retained by the parsed episodes and the time to show the first description, for both the
+ * XML and the JSON path.
+ *
+ * Usage: LazyDetailsBenchmark fixtureDir [iterations] [copies]
+ *
+ * The fixtures are recorded with FormatBenchmark or SoakHarness using --record.
+ */
+public class LazyDetailsBenchmark {
+    private static final int DEFAULT_ITERATIONS = 50;
+    //Number of parsed copies kept at once when measuring retained heap, makes the difference measurable
+    private static final int DEFAULT_COPIES = 20;
+    private static final int WARMUP_ITERATIONS = 10;
+
+    private final Path fixtureDir;
+    private final Instant recordedAt;
+
+    /**
+     * Creates a benchmark reading documents from the fixture directory.
+     *
+     * @param fixtureDir the directory containing the recorded documents
+     * @throws IOException if the recording time could not be read
+     */
+    public LazyDetailsBenchmark(Path fixtureDir) throws IOException {
+        this.fixtureDir = fixtureDir;
+        recordedAt = new FixtureParser(fixtureDir, false).getRecordedAt();
+    }
+
+    /**
+     * Creates a parser for one mode
+     *
+     * @param json true to read JSON, false to read XML
+     * @param lazy true to read descriptions and image urls when first asked for
+     * @return the FixtureParser
+     * @throws IOException if the fixture directory could not be opened
+     */
+    private FixtureParser createParser(boolean json, boolean lazy) throws IOException {
+        FixtureParser parser = new FixtureParser(fixtureDir, false);
+        parser.setClock(Clock.fixed(recordedAt, ZoneId.systemDefault()));
+        parser.setJsonFormat(json);
+        parser.setLazyDetails(lazy);
+        parser.setArchive(null);
+        return parser;
+    }
+
+    /**
+     * Runs a full refresh
+     *
+     * @param parser the parser to refresh
+     */
+    private static void refresh(FixtureParser parser) {
+        parser.resetListOfChannels();
+        parser.resetListOfEpisodes();
+        parser.parseChannel("");
+        parser.parseEpisodes(LocalDate.now(parser.getClock()));
+        if (parser.checkIfErrorOcccurred()) {
+            throw new IllegalStateException(parser.getError());
+        }
+    }
+
+    /**
+     * Measures one mode and prints a line of results
+     *
+     * @param json true to read JSON, false to read XML
+     * @param lazy true to read descriptions and image urls when first asked for
+     * @param iterations the number of measured refreshes
+     * @param copies the number of parsed copies kept when measuring retained heap
+     * @throws IOException if the fixtures could not be read
+     */
+    private void measure(boolean json, boolean lazy, int iterations, int copies) throws IOException {
+        FixtureParser parser = createParser(json, lazy);
+
+        long nanos = 0;
+        long allocated = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS + iterations; i++) {
+            long allocBefore = Measurements.allocatedBytes();
+            long start = System.nanoTime();
+            refresh(parser);
+            if (i >= WARMUP_ITERATIONS) {
+                nanos += System.nanoTime() - start;
+                allocated += Measurements.allocatedBytes() - allocBefore;
+            }
+        }
+
+        ArrayList<FixtureParser> kept = new ArrayList<>();
+        long heapBefore = Measurements.heapAfterGc();
+        for (int i = 0; i < copies; i++) {
+            FixtureParser copy = createParser(json, lazy);
+            refresh(copy);
+            kept.add(copy);
+        }
+        long retained = (Measurements.heapAfterGc() - heapBefore) / copies;
+
+        //Includes reading the document again in lazy mode
+        long detailStart = System.nanoTime();
+        String description = kept.get(0).getListOfEpisodes().get(0).getDescritption();
+        long detailNanos = System.nanoTime() - detailStart;
+        if (description == null) {
+            throw new IllegalStateException("The first episode has no description");
+        }
+
+        System.out.printf("%s\t%s\t%.2f\t%d\t%d\t%.2f\t%d%n", json ? "json" : "xml", lazy ? "lazy" : "eager",
+                nanos / (double) iterations / 1_000_000, allocated / iterations / 1024, retained / 1024,
+                detailNanos / 1_000_000.0, kept.get(0).getListOfEpisodes().size());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: LazyDetailsBenchmark fixtureDir [iterations] [copies]");
+            System.exit(2);
+        }
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        int copies = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_COPIES;
+        LazyDetailsBenchmark benchmark = new LazyDetailsBenchmark(Paths.get(args[0]));
+
+        System.out.println("format\tmode\tparseMs\tallocKB\tretainedKB\tfirstDetailMs\tepisodes");
+        for (boolean json : new boolean[]{false, true}) {
+            benchmark.measure(json, false, iterations, copies);
+            benchmark.measure(json, true, iterations, copies);
+        }
+    }
+}
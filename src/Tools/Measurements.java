@@ -0,0 +1,36 @@
+package Tools;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Heap and allocation measurements shared by the benchmarks and the soak harness.
+ */
+final class Measurements {
+    private Measurements() {
+    }
+
+    /**
+     * Runs the garbage collector and returns the used heap
+     *
+     * @return the used heap in bytes
+     */
+    static long heapAfterGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Gets the number of bytes allocated by the current thread, or 0 if not supported
+     *
+     * @return the allocated bytes
+     */
+    static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean sunThreads) {
+            return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
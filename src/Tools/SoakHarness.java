@@ -0,0 +1,236 @@
+package Tools;
+
+import Model.XMLParser;
+import View.Gui;
+import javax.swing.*;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A headless harness that drives many simulated hourly refreshes against recorded documents
+ * and reports heap, allocation, thread count, latency, timers and listeners over time.
+ * Each cycle refreshes the Model the way Controller does and then rebuilds the menu and
+ * table and fires the hourly timer of a Gui placed in a root pane without a frame.
+ *
+ * Usage: SoakHarness fixtureDir [cycles] [maxHeapGrowthMB] [--record]
+ *
+ * With --record missing documents are downloaded from the API and saved in fixtureDir.
+ * Exits with status 1 if a refresh gives no episodes, or if heap, threads, timers or
+ * listeners grow more than allowed.
+ */
+public class SoakHarness {
+    private static final int DEFAULT_CYCLES = 500;
+    private static final long DEFAULT_MAX_HEAP_GROWTH_MB = 16;
+    //Number of cycles before the baseline is measured, lets caches and JIT settle
+    private static final int WARMUP_CYCLES = 20;
+    private static final int REPORT_EVERY = 25;
+    //Threads may be started on demand, e.g. by the page fetcher in XMLParser
+    private static final int THREAD_TOLERANCE = 2;
+    //One hour in milliseconds, same as in Controller
+    private static final int BACKGROUND_WAIT_SECONDS = 60 * 60 * 1000;
+
+    private final FixtureParser parser;
+    private final FixtureParser guiParser;
+    private final AcceleratedClock clock;
+    private final JRootPane rootPane = new JRootPane();
+    private Gui gui;
+
+    /**
+     * Creates a harness reading documents from the fixture directory.
+     *
+     * @param fixtureDir the directory containing the recorded documents
+     * @param record true if missing documents should be downloaded and saved
+     * @throws IOException if the recording time could not be read or written
+     */
+    public SoakHarness(Path fixtureDir, boolean record) throws IOException {
+        parser = new FixtureParser(fixtureDir, record);
+        guiParser = new FixtureParser(fixtureDir, record);
+        clock = new AcceleratedClock(parser.getRecordedAt());
+        parser.setClock(clock);
+        guiParser.setClock(clock);
+    }
+
+    /**
+     * Runs the given number of refresh cycles and prints a report.
+     *
+     * @param cycles the number of simulated hourly refreshes
+     * @param maxHeapGrowthMB the allowed growth of heap after GC in megabytes
+     * @return true if every refresh gave episodes and heap, threads, timers and listeners
+     * stayed within the thresholds
+     * @throws Exception if the Gui could not be driven on the event dispatch thread
+     */
+    public boolean run(int cycles, long maxHeapGrowthMB) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        SwingUtilities.invokeAndWait(() -> gui = new Gui(rootPane, guiParser));
+        Set<Timer> timers = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        long baselineHeap = 0;
+        int baselineThreads = 0;
+        int baselineListeners = 0;
+        long maxHeap = 0;
+        int maxThreads = 0;
+        int maxListeners = 0;
+
+        System.out.println("cycle\theapAfterGcKB\tallocKB\tthreads\tlatencyMs\tepisodes\ttimers\tlisteners");
+        for (int cycle = 1; cycle <= cycles; cycle++) {
+            long allocBefore = Measurements.allocatedBytes();
+            long start = System.nanoTime();
+            //Same steps as the hourly Timer_Tick in Gui
+            parser.resetListOfChannels();
+            parser.resetListOfEpisodes();
+            parser.parseChannel("");
+            parser.parseEpisodes(LocalDate.now(clock));
+            long latency = System.nanoTime() - start;
+            long alloc = Measurements.allocatedBytes() - allocBefore;
+            clock.advance(Duration.ofHours(1));
+
+            //Same steps as Controller when done, followed by an hourly Timer_Tick
+            SwingUtilities.invokeAndWait(() -> {
+                gui.createMenuBar(parser);
+                gui.createTablePanel(parser);
+                gui.updateGUIEveryHour(BACKGROUND_WAIT_SECONDS);
+                gui.rePaint();
+                Timer timer = gui.getRefreshTimer();
+                timers.add(timer);
+                for (ActionListener listener : timer.getActionListeners()) {
+                    listener.actionPerformed(new ActionEvent(timer, ActionEvent.ACTION_PERFORMED, null));
+                }
+            });
+
+            if (parser.checkIfErrorOcccurred() || guiParser.checkIfErrorOcccurred()) {
+                System.out.println("Refresh failed in cycle " + cycle + ": "
+                        + parser.getError() + " " + guiParser.getError());
+                return false;
+            }
+            int episodes = parser.getListOfEpisodes().size();
+            if (episodes == 0 || guiParser.getListOfEpisodes().isEmpty()) {
+                System.out.println("Refresh gave no episodes in cycle " + cycle
+                        + ", are all days of the recording in the fixture directory?");
+                return false;
+            }
+
+            if (cycle == WARMUP_CYCLES || cycle % REPORT_EVERY == 0 || cycle == cycles) {
+                long heap = Measurements.heapAfterGc();
+                int threadCount = threads.getThreadCount();
+                int listeners = countListeners(rootPane);
+                if (cycle <= WARMUP_CYCLES) {
+                    baselineHeap = heap;
+                    baselineThreads = threadCount;
+                    baselineListeners = listeners;
+                } else {
+                    maxHeap = Math.max(maxHeap, heap);
+                    maxThreads = Math.max(maxThreads, threadCount);
+                    maxListeners = Math.max(maxListeners, listeners);
+                }
+                System.out.println(cycle + "\t" + heap / 1024 + "\t" + alloc / 1024 + "\t"
+                        + threadCount + "\t" + latency / 1_000_000 + "\t" + episodes + "\t"
+                        + timers.size() + "\t" + listeners);
+            }
+        }
+
+        long heapGrowth = maxHeap - baselineHeap;
+        int threadGrowth = maxThreads - baselineThreads;
+        int listenerGrowth = maxListeners - baselineListeners;
+        System.out.println("Heap growth after warmup: " + heapGrowth / 1024 + " KB");
+        System.out.println("Thread growth after warmup: " + threadGrowth);
+        System.out.println("Listener growth after warmup: " + listenerGrowth);
+        System.out.println("Refresh timers created: " + timers.size());
+        System.out.println("Requests: " + XMLParser.getRequests()
+                + ", saved by sharing in-flight fetches: " + XMLParser.getSavedRequests());
+        return heapGrowth <= maxHeapGrowthMB * 1024 * 1024 && threadGrowth <= THREAD_TOLERANCE
+                && listenerGrowth <= 0 && timers.size() == 1;
+    }
+
+    /**
+     * Counts the mouse and action listeners in a component and everything inside it,
+     * including the items of menus
+     *
+     * @param component the component to count listeners in
+     * @return the number of listeners
+     */
+    private int countListeners(Component component) {
+        int count = component.getMouseListeners().length;
+        if (component instanceof AbstractButton button) {
+            count += button.getActionListeners().length;
+        }
+        Component[] children = component instanceof JMenu menu
+                ? menu.getMenuComponents() : ((Container) component).getComponents();
+        for (Component child : children) {
+            count += countListeners(child);
+        }
+        return count;
+    }
+
+    /**
+     * A clock that is moved forward by the harness. Wraps around within the day of the
+     * recording, so the dates asked for stay the recorded d-1, d0 and d+1 and the time range
+     * shown by the parser stays within them.
+     */
+    private static class AcceleratedClock extends Clock {
+        private final Instant dayStart;
+        private final long dayLength;
+        private Duration elapsed;
+
+        AcceleratedClock(Instant start) {
+            LocalDate day = LocalDate.ofInstant(start, ZoneId.systemDefault());
+            dayStart = day.atStartOfDay(ZoneId.systemDefault()).toInstant();
+            dayLength = Duration.between(dayStart,
+                    day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()).toSeconds();
+            elapsed = Duration.between(dayStart, start);
+        }
+
+        void advance(Duration duration) {
+            elapsed = Duration.ofSeconds(Math.floorMod(elapsed.plus(duration).toSeconds(), dayLength));
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return Clock.fixed(instant(), zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return dayStart.plus(elapsed);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        boolean record = Arrays.asList(args).contains("--record");
+        String[] values = Arrays.stream(args).filter(a -> !a.equals("--record")).toArray(String[]::new);
+        if (values.length < 1) {
+            System.out.println("Usage: SoakHarness fixtureDir [cycles] [maxHeapGrowthMB] [--record]");
+            System.exit(2);
+        }
+        int cycles = values.length > 1 ? Integer.parseInt(values[1]) : DEFAULT_CYCLES;
+        long maxGrowth = values.length > 2 ? Long.parseLong(values[2]) : DEFAULT_MAX_HEAP_GROWTH_MB;
+
+        SoakHarness harness = new SoakHarness(Paths.get(values[0]), record);
+        if (!harness.run(cycles, maxGrowth)) {
+            System.out.println("Soak test failed");
+            System.exit(1);
+        }
+        System.out.println("Soak test passed");
+    }
+}
@@ -11,17 +11,26 @@ import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * The graphical user interface presenting the information regarding radio channels.
  */
 public class Gui {
     private JFrame frame;
-    private final XMLParser parser = new XMLParser();
+    //The root pane of the frame, or a root pane without a frame when run headless
+    private final JRootPane rootPane;
+    private final XMLParser parser;
     private JTable table;
     private DefaultTableModel model;
+    private JPanel tablePanel;
+    private Timer timer;
+    //Number of days before and after today shown in the timeline
+    private static final int TIMELINE_DAYS = 3;
 
     /**
      * Initializes the frame in constructor
@@ -31,6 +40,20 @@ public class Gui {
         frame.setSize(800, 600);
         frame.setResizable(true);
         frame.setDefaultCloseOperation(frame.EXIT_ON_CLOSE);
+        rootPane = frame.getRootPane();
+        parser = new XMLParser();
+    }
+
+    /**
+     * Creates the gui without a frame, placing the menu and table in the given root pane.
+     * Lets the refreshes be driven without a display.
+     *
+     * @param rootPane the root pane to place the components in
+     * @param parser the XMLParser used when the table is updated
+     */
+    public Gui(JRootPane rootPane, XMLParser parser) {
+        this.rootPane = rootPane;
+        this.parser = parser;
     }
 
     /**
@@ -48,7 +71,7 @@ public class Gui {
             //Updates table when pressing a menu item
             menuItem.addActionListener(e -> {
                 String id = channelName.getId();
-                updateTableForChannel(LocalDate.now(), id);
+                updateTableForChannel(LocalDate.now(parser.getClock()), id);
             });
         }
 
@@ -57,6 +80,10 @@ public class Gui {
         menuProgram.add(menuItemUpdate);
         menuItemUpdate.addActionListener(Update);
 
+        JMenuItem menuItemTimeline = new JMenuItem("Tidslinje");
+        menuProgram.add(menuItemTimeline);
+        menuItemTimeline.addActionListener(Timeline);
+
         JMenuItem menuItemInfo = new JMenuItem("Info");
         menuProgram.add(menuItemInfo);
         menuItemInfo.addActionListener(Info);
@@ -67,7 +94,7 @@ public class Gui {
 
         menuBar.add(menu);
         menuBar.add(menuProgram);
-        frame.setJMenuBar(menuBar);
+        rootPane.setJMenuBar(menuBar);
     }
 
 
@@ -127,12 +154,19 @@ public class Gui {
         model.addColumn("Namn");
         addRowsToTable(episode);
 
+        //Removes the previous table so repeated calls do not stack panels in the frame
+        if (tablePanel != null) {
+            rootPane.getContentPane().remove(tablePanel);
+        }
         JPanel panel = new JPanel();
         panel.add(new JScrollPane(table));
         table.setPreferredScrollableViewportSize(new Dimension
                 (1000, 500));
-        frame.add(panel);
-        frame.pack();
+        rootPane.getContentPane().add(panel);
+        tablePanel = panel;
+        if (frame != null) {
+            frame.pack();
+        }
 
 
         table.addMouseListener(new MouseAdapter() {
@@ -141,12 +175,21 @@ public class Gui {
                     JTable target = (JTable)e.getSource();
                     int row = target.getSelectedRow();
 
-                    String value = episode.getListOfEpisodes().get(row).getImageurl();
+                    ScheduledEpisode selected = episode.getListOfEpisodes().get(row);
+                    String value;
+                    String description;
+                    try {
+                        value = selected.getImageurl();
+                        description = selected.getDescritption();
+                    } catch (UncheckedIOException exception) {
+                        JOptionPane.showMessageDialog(frame, "An exception was caught, cause: "
+                                + exception.getCause(), "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
                     if(value != null){
                         JDialog dialog = new JDialog();
                         dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
-                        dialog.setTitle("Programbeskrivning: " +
-                                episode.getListOfEpisodes().get(row).getDescritption());
+                        dialog.setTitle("Programbeskrivning: " + description);
 
                         try {
                             dialog.add(new JLabel(new ImageIcon(ImageIO.read(new URL(value)))));
@@ -166,13 +209,25 @@ public class Gui {
     }
 
     /**
-     * Updates the GUI every hour.
+     * Updates the GUI every hour. Restarts the existing timer if called again.
      *
      * @param frameTime an integer representing one hour in milliseconds
      */
     public void updateGUIEveryHour(int frameTime) {
-        Timer timer = new Timer(frameTime, Timer_Tick);
-        timer.start();
+        if (timer == null) {
+            timer = new Timer(frameTime, Timer_Tick);
+        }
+        timer.setDelay(frameTime);
+        timer.restart();
+    }
+
+    /**
+     * Gets the timer updating the GUI every hour
+     *
+     * @return the Timer or null if it has not been started
+     */
+    public Timer getRefreshTimer() {
+        return timer;
     }
 
     /**
@@ -185,27 +240,75 @@ public class Gui {
                 "Error", JOptionPane.ERROR_MESSAGE);
     }
 
+    /**
+     * Shows a warning if the episodes could not be archived
+     *
+     * @param parser an XMLParser with an archive error
+     */
+    public void showArchiveError(XMLParser parser){
+        JOptionPane.showMessageDialog(frame, parser.getArchiveError(),
+                "Warning", JOptionPane.WARNING_MESSAGE);
+    }
+
     /**
      * Updates the frame
      */
     public void rePaint(){
-        frame.invalidate();
-        frame.validate();
-        frame.repaint();
+        Container container = frame != null ? frame : rootPane;
+        container.invalidate();
+        container.validate();
+        container.repaint();
     }
 
-    private final ActionListener Update = evt -> {
-        LocalDate now = LocalDate.now();
-        updateTableForChannel(now, "");
-    };
+    private final ActionListener Update = evt -> updateTableForToday();
+
+    private final ActionListener Timer_Tick = evt -> updateTableForToday();
 
-    private final ActionListener Timer_Tick = evt -> {
-        LocalDate now = LocalDate.now();
+    /**
+     * Updates the table with the episodes of all channels for the current date
+     */
+    private void updateTableForToday() {
+        LocalDate now = LocalDate.now(parser.getClock());
         updateTableForChannel(now, "");
-    };
+    }
 
     private final ActionListener Quit = evt -> System.exit(0);
 
+    private final ActionListener Timeline = evt -> showTimeline();
+
+    /**
+     * Parses a week of episodes for all channels on a worker thread and shows them
+     * in a timeline window.
+     */
+    private void showTimeline() {
+        XMLParser weekParser = new XMLParser();
+        weekParser.setTimeWindow(Duration.ofDays(4));
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                weekParser.parseChannel("");
+                weekParser.parseEpisodes(LocalDate.now(), TIMELINE_DAYS, TIMELINE_DAYS);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                if (weekParser.checkIfErrorOcccurred()) {
+                    showError(weekParser);
+                }
+                TimelinePanel timeline = new TimelinePanel(weekParser.getListOfChannels(),
+                        weekParser.getListOfEpisodes());
+                JFrame timelineFrame = new JFrame("Tidslinje");
+                timelineFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+                timelineFrame.add(timeline.createScrollPane());
+                timelineFrame.pack();
+                timelineFrame.setLocationRelativeTo(frame);
+                timelineFrame.setVisible(true);
+                timeline.scrollTo(LocalDateTime.now().minusHours(1));
+            }
+        }.execute();
+    }
+
     private final ActionListener Info = evt -> {
         JDialog jDialog = new JDialog(frame, "Info");
         JTextArea jTextArea = new  JTextArea();
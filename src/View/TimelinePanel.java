@@ -0,0 +1,365 @@
+package View;
+
+import Model.Channel;
+import Model.ScheduledEpisode;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A timeline showing the channels as rows and time as the horizontal axis. Only the
+ * episodes intersecting the visible region are looked up and painted.
+ */
+public class TimelinePanel extends JComponent implements Scrollable {
+    private static final long serialVersionUID = 1L;
+    private static final int ROW_HEIGHT = 36;
+    private static final int HEADER_HEIGHT = 24;
+    private static final int ROW_HEADER_WIDTH = 140;
+    private static final double MIN_PIXELS_PER_MINUTE = 0.1;
+    private static final double MAX_PIXELS_PER_MINUTE = 20;
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("EEE HH:mm");
+    private static final Color GRID_COLOR = new Color(230, 230, 230);
+    private static final Color EVEN_EPISODE_COLOR = new Color(200, 220, 245);
+    private static final Color ODD_EPISODE_COLOR = new Color(180, 205, 235);
+    private static final Color HEADER_COLOR = new Color(240, 240, 240);
+
+    private final ArrayList<Row> rows = new ArrayList<>();
+    private long firstMinute;
+    private long lastMinute;
+    private double pixelsPerMinute = 3;
+
+    /**
+     * Holds the episodes of one channel sorted by start time. Times are minutes since epoch.
+     */
+    private static class Row {
+        private final String name;
+        private long[] starts = new long[0];
+        private long[] ends = new long[0];
+        private ScheduledEpisode[] episodes = new ScheduledEpisode[0];
+        private long longestEpisode;
+
+        Row(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the index of the first episode that may end after the given minute
+         *
+         * @param minute the first visible minute
+         * @return an index into the episode arrays
+         */
+        int firstVisible(long minute) {
+            int index = Arrays.binarySearch(starts, minute - longestEpisode);
+            return index < 0 ? -index - 1 : index;
+        }
+    }
+
+    /**
+     * Builds the rows of the timeline from the channels and their episodes
+     *
+     * @param channels the channels to show as rows
+     * @param episodes the episodes of all channels
+     */
+    public TimelinePanel(List<Channel> channels, List<ScheduledEpisode> episodes) {
+        Map<String, List<ScheduledEpisode>> byChannel = new HashMap<>();
+        for (Channel channel : channels) {
+            if (!byChannel.containsKey(channel.getName())) {
+                byChannel.put(channel.getName(), new ArrayList<>());
+                rows.add(new Row(channel.getName()));
+            }
+        }
+        for (ScheduledEpisode episode : episodes) {
+            List<ScheduledEpisode> list = byChannel.get(episode.getName());
+            if (list != null && episode.getStartDate() != null && episode.getEndDate() != null) {
+                list.add(episode);
+            }
+        }
+
+        firstMinute = Long.MAX_VALUE;
+        lastMinute = Long.MIN_VALUE;
+        for (Row row : rows) {
+            List<ScheduledEpisode> list = byChannel.get(row.name);
+            list.sort((a, b) -> Long.compare(startMinute(a), startMinute(b)));
+            row.starts = new long[list.size()];
+            row.ends = new long[list.size()];
+            row.episodes = list.toArray(new ScheduledEpisode[0]);
+            for (int i = 0; i < list.size(); i++) {
+                row.starts[i] = startMinute(list.get(i));
+                row.ends[i] = Math.max(row.starts[i], endMinute(list.get(i)));
+                row.longestEpisode = Math.max(row.longestEpisode, row.ends[i] - row.starts[i]);
+                firstMinute = Math.min(firstMinute, row.starts[i]);
+                lastMinute = Math.max(lastMinute, row.ends[i]);
+            }
+        }
+        if (firstMinute > lastMinute) {
+            firstMinute = toMinute(LocalDateTime.now());
+            lastMinute = firstMinute + 24 * 60;
+        }
+        //Starts the axis on a whole hour
+        firstMinute -= Math.floorMod(firstMinute, 60);
+
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        setToolTipText("");
+        addMouseWheelListener(this::zoom);
+    }
+
+    /**
+     * Creates a scroll pane showing the timeline with channel names and hours as headers
+     *
+     * @return a JScrollPane containing the timeline
+     */
+    public JScrollPane createScrollPane() {
+        JScrollPane scrollPane = new JScrollPane(this);
+        scrollPane.setRowHeaderView(new ChannelHeader());
+        scrollPane.setColumnHeaderView(new HourHeader());
+        scrollPane.setWheelScrollingEnabled(true);
+        return scrollPane;
+    }
+
+    /**
+     * Scrolls the visible region so it starts at the given time
+     *
+     * @param time the time to show at the left edge
+     */
+    public void scrollTo(LocalDateTime time) {
+        Rectangle visible = getVisibleRect();
+        visible.x = xForMinute(toMinute(time));
+        scrollRectToVisible(visible);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        long fromMinute = minuteForX(clip.x);
+        long toMinute = minuteForX(clip.x + clip.width) + 1;
+
+        //Hour lines in the visible region
+        g.setColor(GRID_COLOR);
+        for (long minute = fromMinute - Math.floorMod(fromMinute, 60); minute <= toMinute; minute += 60) {
+            int x = xForMinute(minute);
+            g.drawLine(x, clip.y, x, clip.y + clip.height);
+        }
+
+        int firstRow = Math.max(0, clip.y / ROW_HEIGHT);
+        int lastRow = Math.min(rows.size() - 1, (clip.y + clip.height) / ROW_HEIGHT);
+        FontMetrics metrics = g.getFontMetrics();
+        for (int r = firstRow; r <= lastRow; r++) {
+            Row row = rows.get(r);
+            int y = r * ROW_HEIGHT;
+            for (int i = row.firstVisible(fromMinute); i < row.starts.length && row.starts[i] < toMinute; i++) {
+                if (row.ends[i] <= fromMinute) {
+                    continue;
+                }
+                int x1 = xForMinute(row.starts[i]);
+                int x2 = xForMinute(row.ends[i]);
+                g.setColor(i % 2 == 0 ? EVEN_EPISODE_COLOR : ODD_EPISODE_COLOR);
+                g.fillRect(x1, y + 2, Math.max(1, x2 - x1 - 1), ROW_HEIGHT - 4);
+                g.setColor(Color.DARK_GRAY);
+                g.drawRect(x1, y + 2, Math.max(1, x2 - x1 - 1), ROW_HEIGHT - 4);
+
+                String title = row.episodes[i].getTitle();
+                if (title != null && x2 - x1 > 12) {
+                    Shape oldClip = g.getClip();
+                    g.clipRect(x1, y, x2 - x1 - 4, ROW_HEIGHT);
+                    g.drawString(title, x1 + 4, y + (ROW_HEIGHT + metrics.getAscent()) / 2 - 2);
+                    g.setClip(oldClip);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int r = e.getY() / ROW_HEIGHT;
+        if (r < 0 || r >= rows.size()) {
+            return null;
+        }
+        Row row = rows.get(r);
+        long minute = minuteForX(e.getX());
+        for (int i = row.firstVisible(minute); i < row.starts.length && row.starts[i] <= minute; i++) {
+            if (row.ends[i] > minute) {
+                ScheduledEpisode episode = row.episodes[i];
+                return episode.getTitle() + " (" + episode.getStartTime() + " - " + episode.getEndTime() + ")";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Zooms the time axis when the mouse wheel is used together with ctrl.
+     * The time under the mouse pointer stays in place.
+     *
+     * @param e the mouse wheel event
+     */
+    private void zoom(MouseWheelEvent e) {
+        JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, this);
+        if (!e.isControlDown()) {
+            //Lets the scroll pane scroll as usual
+            if (scrollPane != null) {
+                scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, scrollPane));
+            }
+            return;
+        }
+        long minute = minuteForX(e.getX());
+        int offset = e.getX() - getVisibleRect().x;
+        double factor = Math.pow(1.2, -e.getPreciseWheelRotation());
+        pixelsPerMinute = Math.max(MIN_PIXELS_PER_MINUTE,
+                Math.min(MAX_PIXELS_PER_MINUTE, pixelsPerMinute * factor));
+        revalidate();
+
+        if (scrollPane != null) {
+            JViewport viewport = scrollPane.getViewport();
+            viewport.doLayout();
+            if (scrollPane.getColumnHeader() != null) {
+                scrollPane.getColumnHeader().getView().revalidate();
+                scrollPane.getColumnHeader().doLayout();
+            }
+            int maxX = Math.max(0, getPreferredSize().width - viewport.getWidth());
+            int x = Math.max(0, Math.min(maxX, xForMinute(minute) - offset));
+            viewport.setViewPosition(new Point(x, viewport.getViewPosition().y));
+            scrollPane.repaint();
+        }
+        repaint();
+    }
+
+    private int xForMinute(long minute) {
+        return (int) Math.round((minute - firstMinute) * pixelsPerMinute);
+    }
+
+    private long minuteForX(int x) {
+        return firstMinute + (long) Math.floor(x / pixelsPerMinute);
+    }
+
+    private static long startMinute(ScheduledEpisode episode) {
+        return toMinute(LocalDateTime.parse(episode.getStartDate() + "T"
+                + episode.getStartTime().substring(0, 5)));
+    }
+
+    private static long endMinute(ScheduledEpisode episode) {
+        return toMinute(LocalDateTime.parse(episode.getEndDate() + "T"
+                + episode.getEndTime().substring(0, 5)));
+    }
+
+    private static long toMinute(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() / 60;
+    }
+
+    private static LocalDateTime fromMinute(long minute) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(minute * 60), ZoneId.systemDefault());
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(xForMinute(lastMinute) + 1, rows.size() * ROW_HEIGHT);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(900, Math.min(rows.size(), 12) * ROW_HEIGHT);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        if (orientation == SwingConstants.VERTICAL) {
+            return ROW_HEIGHT;
+        }
+        return Math.max(1, (int) Math.round(15 * pixelsPerMinute));
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    /**
+     * Paints the channel names for the visible rows
+     */
+    private class ChannelHeader extends JComponent {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension(ROW_HEADER_WIDTH, rows.size() * ROW_HEIGHT);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            g.setColor(HEADER_COLOR);
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+            int firstRow = Math.max(0, clip.y / ROW_HEIGHT);
+            int lastRow = Math.min(rows.size() - 1, (clip.y + clip.height) / ROW_HEIGHT);
+            FontMetrics metrics = g.getFontMetrics();
+            for (int r = firstRow; r <= lastRow; r++) {
+                int y = r * ROW_HEIGHT;
+                g.setColor(Color.LIGHT_GRAY);
+                g.drawLine(0, y + ROW_HEIGHT - 1, ROW_HEADER_WIDTH, y + ROW_HEIGHT - 1);
+                g.setColor(Color.BLACK);
+                g.drawString(rows.get(r).name, 6, y + (ROW_HEIGHT + metrics.getAscent()) / 2 - 2);
+            }
+        }
+    }
+
+    /**
+     * Paints the hours for the visible part of the time axis
+     */
+    private class HourHeader extends JComponent {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension(TimelinePanel.this.getPreferredSize().width, HEADER_HEIGHT);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            g.setColor(HEADER_COLOR);
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+            g.setColor(Color.BLACK);
+            long fromMinute = minuteForX(clip.x);
+            long toMinute = minuteForX(clip.x + clip.width) + 1;
+            //Shows fewer labels when zoomed out so they do not overlap
+            long step = pixelsPerMinute >= 1.5 ? 60 : pixelsPerMinute >= 0.5 ? 180 : 720;
+            for (long minute = fromMinute - Math.floorMod(fromMinute, step) - step;
+                 minute <= toMinute; minute += step) {
+                int x = xForMinute(minute);
+                g.drawLine(x, HEADER_HEIGHT - 6, x, HEADER_HEIGHT);
+                g.drawString(fromMinute(minute).format(HOUR_FORMAT), x + 3, HEADER_HEIGHT - 8);
+            }
+        }
+    }
+}